@@ -0,0 +1,89 @@
+import java.util.function.Function;
+
+public class ApiResult<T> {
+
+    public enum Status {
+        SUCCESS,
+        HTTP_ERROR,
+        THROTTLED,
+        TIMEOUT,
+        NETWORK_ERROR,
+        PARSE_ERROR,
+        CIRCUIT_OPEN,
+        // The calling thread was interrupted; says nothing about the endpoint.
+        INTERRUPTED
+    }
+
+    private final Status status;
+    private final T value;
+    private final int statusCode;
+    private final String message;
+
+    private ApiResult(Status status, T value, int statusCode, String message) {
+        this.status = status;
+        this.value = value;
+        this.statusCode = statusCode;
+        this.message = message;
+    }
+
+    public static <T> ApiResult<T> success(T value, int statusCode) {
+        return new ApiResult<>(Status.SUCCESS, value, statusCode, null);
+    }
+
+    public static <T> ApiResult<T> failure(Status status, int statusCode, String message) {
+        if (status == Status.SUCCESS) {
+            throw new IllegalArgumentException("A failure cannot have status SUCCESS");
+        }
+        return new ApiResult<>(status, null, statusCode, message);
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public T getValue() {
+        if (!isSuccess()) {
+            throw new IllegalStateException("No value for failed result: " + this);
+        }
+        return value;
+    }
+
+    public T getValueOrElse(T other) {
+        return isSuccess() ? value : other;
+    }
+
+    // HTTP status code, or 0 when the request never got a response.
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public <R> ApiResult<R> map(Function<T, R> mapper) {
+        return isSuccess()
+                ? new ApiResult<>(status, mapper.apply(value), statusCode, null)
+                : new ApiResult<>(status, null, statusCode, message);
+    }
+
+    // Failures that say something about the health of the endpoint, as opposed to a bad request from us.
+    public boolean isEndpointFailure() {
+        return switch (status) {
+            case THROTTLED, TIMEOUT, NETWORK_ERROR -> true;
+            case HTTP_ERROR -> statusCode >= 500;
+            default -> false;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess()
+                ? "ApiResult{SUCCESS, statusCode=" + statusCode + "}"
+                : "ApiResult{" + status + ", statusCode=" + statusCode + ", message=" + message + "}";
+    }
+}
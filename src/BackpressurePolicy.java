@@ -0,0 +1,5 @@
+public enum BackpressurePolicy {
+    DROP_OLDEST,
+    BLOCK,
+    COALESCE
+}
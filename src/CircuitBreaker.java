@@ -0,0 +1,96 @@
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class CircuitBreaker {
+    private static final Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+    public static final long REJECTED = -1;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    // Returns the generation the call was admitted in, or REJECTED. The generation changes on every state
+    // transition, and outcomes are only counted for the current one, so calls that were already running
+    // when the circuit opened cannot close or reopen it. After the open period a single probe is let
+    // through; its outcome alone closes or reopens the circuit.
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAtMillis < openDurationMillis) {
+                return REJECTED;
+            }
+            transition(State.HALF_OPEN);
+            logger.info("Circuit {} half-open, sending probe", name);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return REJECTED;
+            }
+            probeInFlight = true;
+        }
+        return generation;
+    }
+
+    public synchronized void recordSuccess(long admittedGeneration) {
+        if (admittedGeneration != generation) {
+            return;
+        }
+        if (state != State.CLOSED) {
+            logger.info("Circuit {} closed", name);
+            transition(State.CLOSED);
+        }
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void recordFailure(long admittedGeneration) {
+        if (admittedGeneration != generation) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            logger.error("Circuit {} opened after {} consecutive failures", name, consecutiveFailures);
+            transition(State.OPEN);
+            openedAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    // Releases a half-open probe whose outcome says nothing about the endpoint, e.g. a rejected request.
+    public synchronized void recordIgnored(long admittedGeneration) {
+        if (admittedGeneration == generation && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    private void transition(State next) {
+        state = next;
+        generation++;
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
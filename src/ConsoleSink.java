@@ -0,0 +1,22 @@
+import java.io.PrintStream;
+import java.util.List;
+
+public class ConsoleSink implements NotificationSink {
+    private final PrintStream out;
+
+    public ConsoleSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public String getName() {
+        return "stdout";
+    }
+
+    @Override
+    public void send(List<ItemEvent> events) {
+        for (ItemEvent event : events) {
+            out.println(event);
+        }
+    }
+}
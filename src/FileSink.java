@@ -0,0 +1,44 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FileSink implements NotificationSink {
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final Path path;
+
+    public FileSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + path;
+    }
+
+    // One JSON object per line, appended in a single open/close per batch.
+    @Override
+    public void send(List<ItemEvent> events) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ItemEvent event : events) {
+                writer.write(event.toString());
+                writer.write(System.lineSeparator());
+            }
+        }
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+}
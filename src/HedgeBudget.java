@@ -0,0 +1,28 @@
+// Caps hedged attempts to a fraction of the most recent calls of one endpoint, so a sudden slowdown,
+// where most calls pass the old p95, cannot double the load on a struggling API.
+public class HedgeBudget {
+    private final boolean[] window;
+    private final int maxHedges;
+    private int next;
+    private int hedges;
+
+    public HedgeBudget(int windowSize, double maxRatio) {
+        this.window = new boolean[windowSize];
+        this.maxHedges = (int) Math.floor(windowSize * maxRatio);
+    }
+
+    public synchronized boolean canHedge() {
+        return hedges < maxHedges;
+    }
+
+    public synchronized void record(boolean hedged) {
+        if (window[next]) {
+            hedges--;
+        }
+        window[next] = hedged;
+        if (hedged) {
+            hedges++;
+        }
+        next = (next + 1) % window.length;
+    }
+}
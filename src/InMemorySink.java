@@ -0,0 +1,52 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// In-process stand-in for real sinks, optionally slowed down to exercise backpressure.
+public class InMemorySink implements NotificationSink {
+    private final String name;
+    private final int maxBatchSize;
+    private final long delayMillis;
+    private final List<ItemEvent> received = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    public InMemorySink(String name) {
+        this(name, 1, 0);
+    }
+
+    public InMemorySink(String name, int maxBatchSize, long delayMillis) {
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void send(List<ItemEvent> events) {
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        received.addAll(events);
+        batchSizes.add(events.size());
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public List<ItemEvent> getReceived() {
+        return received;
+    }
+
+    public List<Integer> getBatchSizes() {
+        return batchSizes;
+    }
+}
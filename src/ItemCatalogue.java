@@ -0,0 +1,425 @@
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Immutable column-per-field snapshot of many items. Repeated strings are dictionary-encoded,
+// rows are sorted by item id, and updates copy only the columns they change so readers never lock.
+public class ItemCatalogue {
+    private static final Logger logger = LogManager.getLogger(ItemCatalogue.class);
+
+    public static final long NO_VALUE = Long.MIN_VALUE;
+    public static final int NO_CODE = -1;
+
+    private final String[] itemIds;
+    private final int[] itemsAvailable;
+    private final long[] priceMinorUnits;
+    private final long[] valueMinorUnits;
+    private final byte[] decimals;
+    private final int[] currencyCodes;
+    private final int[] categoryCodes;
+    private final int[] storeCodes;
+    private final int[] addressCodes;
+    private final long[] pickupStart;
+    private final long[] pickupEnd;
+    private final float[] rating;
+
+    private final String[] currencies;
+    private final String[] categories;
+    private final String[] stores;
+    private final String[] addresses;
+
+    private ItemCatalogue(String[] itemIds, int[] itemsAvailable, long[] priceMinorUnits, long[] valueMinorUnits,
+                          byte[] decimals, int[] currencyCodes, int[] categoryCodes, int[] storeCodes, int[] addressCodes,
+                          long[] pickupStart, long[] pickupEnd, float[] rating,
+                          String[] currencies, String[] categories, String[] stores, String[] addresses) {
+        this.itemIds = itemIds;
+        this.itemsAvailable = itemsAvailable;
+        this.priceMinorUnits = priceMinorUnits;
+        this.valueMinorUnits = valueMinorUnits;
+        this.decimals = decimals;
+        this.currencyCodes = currencyCodes;
+        this.categoryCodes = categoryCodes;
+        this.storeCodes = storeCodes;
+        this.addressCodes = addressCodes;
+        this.pickupStart = pickupStart;
+        this.pickupEnd = pickupEnd;
+        this.rating = rating;
+        this.currencies = currencies;
+        this.categories = categories;
+        this.stores = stores;
+        this.addresses = addresses;
+    }
+
+    // Accepts an item/v8 response ("items"), a discover bucket ("mobile_bucket") or a single item.
+    public static ItemCatalogue fromResponse(JSONObject response) {
+        Builder builder = new Builder();
+        JSONArray items = response.optJSONArray("items");
+        if (items == null && response.has("mobile_bucket")) {
+            items = response.getJSONObject("mobile_bucket").optJSONArray("items");
+        }
+
+        if (items != null) {
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.optJSONObject(i);
+                if (item != null) {
+                    builder.add(item);
+                }
+            }
+        } else if (response.has("item")) {
+            builder.add(response);
+        }
+        return builder.build();
+    }
+
+    public static ItemCatalogue fromItems(List<ItemResult> items) {
+        Builder builder = new Builder();
+        for (ItemResult item : items) {
+            builder.add(item);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return itemIds.length;
+    }
+
+    public int indexOf(String itemId) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        return index >= 0 ? index : -1;
+    }
+
+    public String getItemId(int index) {
+        return itemIds[index];
+    }
+
+    public int getItemsAvailable(int index) {
+        return itemsAvailable[index];
+    }
+
+    public long getPriceMinorUnits(int index) {
+        return priceMinorUnits[index];
+    }
+
+    public long getValueMinorUnits(int index) {
+        return valueMinorUnits[index];
+    }
+
+    public int getDecimals(int index) {
+        return decimals[index];
+    }
+
+    public String getCurrency(int index) {
+        return decode(currencies, currencyCodes[index]);
+    }
+
+    public String getCategory(int index) {
+        return decode(categories, categoryCodes[index]);
+    }
+
+    public String getStoreName(int index) {
+        return decode(stores, storeCodes[index]);
+    }
+
+    public String getAddress(int index) {
+        return decode(addresses, addressCodes[index]);
+    }
+
+    public long getPickupStart(int index) {
+        return pickupStart[index];
+    }
+
+    public long getPickupEnd(int index) {
+        return pickupEnd[index];
+    }
+
+    // NaN when the item has no rating yet.
+    public float getRating(int index) {
+        return rating[index];
+    }
+
+    public int[] filter(ItemFilter filter) {
+        int category = NO_CODE;
+        if (filter.getCategory() != null) {
+            category = Arrays.asList(categories).indexOf(filter.getCategory());
+            if (category == NO_CODE) {
+                return new int[0];
+            }
+        }
+
+        boolean inStock = filter.isInStock();
+        boolean priceRange = filter.hasPriceRange();
+        boolean pickupWindow = filter.hasPickupWindow();
+        long minPrice = filter.getMinPrice();
+        long maxPrice = filter.getMaxPrice();
+        long pickupFrom = filter.getPickupFrom();
+        long pickupTo = filter.getPickupTo();
+
+        int[] matches = new int[itemIds.length];
+        int count = 0;
+        for (int i = 0; i < itemIds.length; i++) {
+            if (inStock && itemsAvailable[i] <= 0) {
+                continue;
+            }
+            if (category != NO_CODE && categoryCodes[i] != category) {
+                continue;
+            }
+            if (priceRange && (priceMinorUnits[i] == NO_VALUE || priceMinorUnits[i] < minPrice || priceMinorUnits[i] > maxPrice)) {
+                continue;
+            }
+            if (pickupWindow && (pickupStart[i] == NO_VALUE || pickupStart[i] < pickupFrom || pickupEnd[i] > pickupTo)) {
+                continue;
+            }
+            matches[count++] = i;
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // New snapshot with updated stock; every other column is shared with this one.
+    public ItemCatalogue withItemsAvailable(Map<String, Integer> updates) {
+        int[] stock = itemsAvailable.clone();
+        for (Map.Entry<String, Integer> update : updates.entrySet()) {
+            int index = indexOf(update.getKey());
+            if (index >= 0) {
+                stock[index] = update.getValue();
+            }
+        }
+        return new ItemCatalogue(itemIds, stock, priceMinorUnits, valueMinorUnits, decimals, currencyCodes,
+                categoryCodes, storeCodes, addressCodes, pickupStart, pickupEnd, rating,
+                currencies, categories, stores, addresses);
+    }
+
+    public JSONObject toJSON(int index) {
+        JSONObject item = new JSONObject()
+                .put("item_id", getItemId(index))
+                .put("store_name", getStoreName(index))
+                .put("category", getCategory(index))
+                .put("address", getAddress(index))
+                .put("items_available", getItemsAvailable(index))
+                .put("currency", getCurrency(index))
+                .put("decimals", getDecimals(index));
+        if (priceMinorUnits[index] != NO_VALUE) {
+            item.put("price_minor_units", priceMinorUnits[index]);
+        }
+        if (valueMinorUnits[index] != NO_VALUE) {
+            item.put("value_minor_units", valueMinorUnits[index]);
+        }
+        if (pickupStart[index] != NO_VALUE) {
+            item.put("pickup_start", pickupStart[index]);
+            item.put("pickup_end", pickupEnd[index]);
+        }
+        if (!Float.isNaN(rating[index])) {
+            item.put("rating", rating[index]);
+        }
+        return item;
+    }
+
+    private static String decode(String[] dictionary, int code) {
+        return code == NO_CODE ? null : dictionary[code];
+    }
+
+    public static class Builder {
+        private int size;
+        private String[] itemIds = new String[16];
+        private int[] itemsAvailable = new int[16];
+        private long[] priceMinorUnits = new long[16];
+        private long[] valueMinorUnits = new long[16];
+        private byte[] decimals = new byte[16];
+        private int[] currencyCodes = new int[16];
+        private int[] categoryCodes = new int[16];
+        private int[] storeCodes = new int[16];
+        private int[] addressCodes = new int[16];
+        private long[] pickupStart = new long[16];
+        private long[] pickupEnd = new long[16];
+        private float[] rating = new float[16];
+
+        private final Map<String, Integer> rows = new HashMap<>();
+        private final Dictionary currencies = new Dictionary();
+        private final Dictionary categories = new Dictionary();
+        private final Dictionary stores = new Dictionary();
+        private final Dictionary addresses = new Dictionary();
+
+        public Builder() {
+        }
+
+        // Starts from an existing snapshot so items can be added or replaced without re-parsing.
+        public Builder(ItemCatalogue catalogue) {
+            for (int i = 0; i < catalogue.size(); i++) {
+                int row = row(catalogue.itemIds[i]);
+                itemsAvailable[row] = catalogue.itemsAvailable[i];
+                priceMinorUnits[row] = catalogue.priceMinorUnits[i];
+                valueMinorUnits[row] = catalogue.valueMinorUnits[i];
+                decimals[row] = catalogue.decimals[i];
+                currencyCodes[row] = currencies.encode(catalogue.getCurrency(i));
+                categoryCodes[row] = categories.encode(catalogue.getCategory(i));
+                storeCodes[row] = stores.encode(catalogue.getStoreName(i));
+                addressCodes[row] = addresses.encode(catalogue.getAddress(i));
+                pickupStart[row] = catalogue.pickupStart[i];
+                pickupEnd[row] = catalogue.pickupEnd[i];
+                rating[row] = catalogue.rating[i];
+            }
+        }
+
+        public Builder add(ItemResult item) {
+            return add(item.getRaw());
+        }
+
+        // Takes one raw item as returned by the API; an item already in the builder is replaced.
+        // Malformed fields are stored as NO_VALUE / NO_CODE / NaN; an item without an id is skipped.
+        public Builder add(JSONObject itemObject) {
+            JSONObject item = itemObject.optJSONObject("item");
+            String itemId = item != null ? item.optString("item_id", null) : null;
+            if (itemId == null) {
+                logger.error("Skipping item without item_id in catalogue");
+                return this;
+            }
+            int row = row(itemId);
+
+            itemsAvailable[row] = itemObject.optInt("items_available", 0);
+            categoryCodes[row] = categories.encode(item.optString("item_category", null));
+
+            JSONObject store = itemObject.optJSONObject("store");
+            storeCodes[row] = stores.encode(store != null ? store.optString("store_name", null) : null);
+            Object address = itemObject.optQuery("/store/store_location/address/address_line");
+            addressCodes[row] = addresses.encode(address instanceof String ? (String) address : null);
+
+            JSONObject price = item.optJSONObject("item_price");
+            JSONObject value = item.optJSONObject("item_value");
+            priceMinorUnits[row] = minorUnits(price, "item_price", itemId);
+            valueMinorUnits[row] = minorUnits(value, "item_value", itemId);
+            JSONObject money = price != null ? price : value;
+            decimals[row] = (byte) (money != null ? money.optInt("decimals", 2) : 0);
+            currencyCodes[row] = currencies.encode(money != null ? money.optString("code", null) : null);
+
+            JSONObject pickupInterval = itemObject.optJSONObject("pickup_interval");
+            pickupStart[row] = NO_VALUE;
+            pickupEnd[row] = NO_VALUE;
+            if (pickupInterval != null && pickupInterval.has("start") && pickupInterval.has("end")) {
+                try {
+                    long start = Instant.parse(pickupInterval.getString("start")).getEpochSecond();
+                    long end = Instant.parse(pickupInterval.getString("end")).getEpochSecond();
+                    pickupStart[row] = start;
+                    pickupEnd[row] = end;
+                } catch (JSONException | DateTimeParseException e) {
+                    logger.error("Invalid pickup interval for item {}", itemId);
+                }
+            }
+
+            JSONObject averageRating = item.optJSONObject("average_overall_rating");
+            rating[row] = averageRating != null
+                    ? (float) averageRating.optDouble("average_overall_rating", Double.NaN)
+                    : Float.NaN;
+            return this;
+        }
+
+        private static long minorUnits(JSONObject money, String key, String itemId) {
+            if (money == null) {
+                return NO_VALUE;
+            }
+            long minorUnits = money.optLong("minor_units", NO_VALUE);
+            if (minorUnits == NO_VALUE) {
+                logger.error("Invalid {} for item {}", key, itemId);
+            }
+            return minorUnits;
+        }
+
+        public ItemCatalogue build() {
+            int[] order = IntStream.range(0, size)
+                    .boxed()
+                    .sorted(Comparator.comparing(row -> itemIds[row]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            String[] sortedIds = new String[size];
+            int[] sortedStock = new int[size];
+            long[] sortedPrice = new long[size];
+            long[] sortedValue = new long[size];
+            byte[] sortedDecimals = new byte[size];
+            int[] sortedCurrency = new int[size];
+            int[] sortedCategory = new int[size];
+            int[] sortedStore = new int[size];
+            int[] sortedAddress = new int[size];
+            long[] sortedPickupStart = new long[size];
+            long[] sortedPickupEnd = new long[size];
+            float[] sortedRating = new float[size];
+
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                sortedIds[i] = itemIds[row];
+                sortedStock[i] = itemsAvailable[row];
+                sortedPrice[i] = priceMinorUnits[row];
+                sortedValue[i] = valueMinorUnits[row];
+                sortedDecimals[i] = decimals[row];
+                sortedCurrency[i] = currencyCodes[row];
+                sortedCategory[i] = categoryCodes[row];
+                sortedStore[i] = storeCodes[row];
+                sortedAddress[i] = addressCodes[row];
+                sortedPickupStart[i] = pickupStart[row];
+                sortedPickupEnd[i] = pickupEnd[row];
+                sortedRating[i] = rating[row];
+            }
+
+            return new ItemCatalogue(sortedIds, sortedStock, sortedPrice, sortedValue, sortedDecimals,
+                    sortedCurrency, sortedCategory, sortedStore, sortedAddress, sortedPickupStart, sortedPickupEnd,
+                    sortedRating, currencies.toArray(), categories.toArray(), stores.toArray(), addresses.toArray());
+        }
+
+        private int row(String itemId) {
+            Integer existing = rows.get(itemId);
+            if (existing != null) {
+                return existing;
+            }
+
+            if (size == itemIds.length) {
+                int capacity = size * 2;
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                itemsAvailable = Arrays.copyOf(itemsAvailable, capacity);
+                priceMinorUnits = Arrays.copyOf(priceMinorUnits, capacity);
+                valueMinorUnits = Arrays.copyOf(valueMinorUnits, capacity);
+                decimals = Arrays.copyOf(decimals, capacity);
+                currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+                categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+                storeCodes = Arrays.copyOf(storeCodes, capacity);
+                addressCodes = Arrays.copyOf(addressCodes, capacity);
+                pickupStart = Arrays.copyOf(pickupStart, capacity);
+                pickupEnd = Arrays.copyOf(pickupEnd, capacity);
+                rating = Arrays.copyOf(rating, capacity);
+            }
+
+            int row = size++;
+            itemIds[row] = itemId;
+            rows.put(itemId, row);
+            return row;
+        }
+    }
+
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        private String[] toArray() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
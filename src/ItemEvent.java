@@ -0,0 +1,28 @@
+public class ItemEvent {
+    private final String itemId;
+    private final ItemResult item;
+    private final long createdNanos;
+
+    public ItemEvent(String itemId, ItemResult item) {
+        this.itemId = itemId;
+        this.item = item;
+        this.createdNanos = System.nanoTime();
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public ItemResult getItem() {
+        return item;
+    }
+
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    @Override
+    public String toString() {
+        return item.toJSONString();
+    }
+}
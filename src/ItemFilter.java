@@ -0,0 +1,64 @@
+public class ItemFilter {
+    private boolean inStock;
+    private long minPrice = Long.MIN_VALUE;
+    private long maxPrice = Long.MAX_VALUE;
+    private long pickupFrom = Long.MIN_VALUE;
+    private long pickupTo = Long.MAX_VALUE;
+    private String category;
+
+    public ItemFilter inStock() {
+        this.inStock = true;
+        return this;
+    }
+
+    // Bounds are inclusive and in minor units of the item's own currency, e.g. 399 for 3.99 EUR.
+    public ItemFilter priceBetween(long minMinorUnits, long maxMinorUnits) {
+        this.minPrice = minMinorUnits;
+        this.maxPrice = maxMinorUnits;
+        return this;
+    }
+
+    // Matches items whose whole pickup interval lies inside [fromEpochSecond, toEpochSecond].
+    public ItemFilter pickupBetween(long fromEpochSecond, long toEpochSecond) {
+        this.pickupFrom = fromEpochSecond;
+        this.pickupTo = toEpochSecond;
+        return this;
+    }
+
+    public ItemFilter category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    public boolean isInStock() {
+        return inStock;
+    }
+
+    public long getMinPrice() {
+        return minPrice;
+    }
+
+    public long getMaxPrice() {
+        return maxPrice;
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE;
+    }
+
+    public long getPickupFrom() {
+        return pickupFrom;
+    }
+
+    public long getPickupTo() {
+        return pickupTo;
+    }
+
+    public boolean hasPickupWindow() {
+        return pickupFrom != Long.MIN_VALUE || pickupTo != Long.MAX_VALUE;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
@@ -0,0 +1,172 @@
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// View over one raw item from the API. Only item_id and items_available are read up front;
+// display fields are formatted on first access and cached, so a stock-only poll formats nothing.
+public class ItemResult implements JSONString {
+    private static final Logger logger = LogManager.getLogger(ItemResult.class);
+    private static final DateTimeFormatter PICKUP_FORMATTER =
+            DateTimeFormatter.ofPattern("EEE dd MMM HH:mm", Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+    private final JSONObject itemObject;
+    private final String itemId;
+    private final int itemsAvailable;
+
+    private String priceAfter;
+    private String priceBefore;
+    private String pickupStart;
+    private String pickupEnd;
+
+    public ItemResult(JSONObject itemObject) {
+        this.itemObject = itemObject;
+        this.itemId = itemObject.getJSONObject("item").getString("item_id");
+        this.itemsAvailable = itemObject.getInt("items_available");
+    }
+
+    public JSONObject getRaw() {
+        return itemObject;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public int getItemsAvailable() {
+        return itemsAvailable;
+    }
+
+    public String getStoreName() {
+        return queryString("/store/store_name");
+    }
+
+    public String getCoverPicture() {
+        return queryString("/item/cover_picture/current_url");
+    }
+
+    public String getLogoPicture() {
+        return queryString("/item/logo_picture/current_url");
+    }
+
+    public String getCategory() {
+        return queryString("/item/item_category");
+    }
+
+    public String getAddress() {
+        return queryString("/store/store_location/address/address_line");
+    }
+
+    public String getDescription() {
+        return queryString("/item/description");
+    }
+
+    // Rounded to two decimals, NaN when the item has no rating yet.
+    public double getRating() {
+        Object rating = itemObject.optQuery("/item/average_overall_rating/average_overall_rating");
+        if (rating instanceof Number) {
+            return Math.round(((Number) rating).doubleValue() * 100.0) / 100.0;
+        }
+        return Double.NaN;
+    }
+
+    public String getPriceAfter() {
+        if (priceAfter == null) {
+            priceAfter = formatPrice("item_price");
+        }
+        return priceAfter;
+    }
+
+    public String getPriceBefore() {
+        if (priceBefore == null) {
+            priceBefore = formatPrice("item_value");
+        }
+        return priceBefore;
+    }
+
+    public String getPickupStart() {
+        if (pickupStart == null) {
+            pickupStart = formatPickup("start");
+        }
+        return pickupStart;
+    }
+
+    public String getPickupEnd() {
+        if (pickupEnd == null) {
+            pickupEnd = formatPickup("end");
+        }
+        return pickupEnd;
+    }
+
+    private String queryString(String pointer) {
+        Object value = itemObject.optQuery(pointer);
+        return value instanceof String ? (String) value : "";
+    }
+
+    private String formatPrice(String key) {
+        JSONObject price = itemObject.getJSONObject("item").optJSONObject(key);
+        if (price == null) {
+            logger.debug("Lack of {} for item {}", key, itemId);
+            return "";
+        }
+
+        try {
+            BigDecimal amount = BigDecimal.valueOf(price.getLong("minor_units"), price.getInt("decimals"))
+                    .setScale(2, RoundingMode.HALF_UP);
+            return amount.toPlainString() + price.getString("code");
+        } catch (Exception e) {
+            logger.error("Error during formatting {} for item {}", key, itemId);
+            return "";
+        }
+    }
+
+    private String formatPickup(String key) {
+        JSONObject pickupInterval = itemObject.optJSONObject("pickup_interval");
+        if (pickupInterval == null) {
+            logger.debug("Lack of pickup interval for item {}", itemId);
+            return "";
+        }
+
+        try {
+            return PICKUP_FORMATTER.format(Instant.parse(pickupInterval.getString(key)));
+        } catch (Exception e) {
+            logger.error("Error during formatting pickup interval for item {}", itemId);
+            return "";
+        }
+    }
+
+    public JSONObject toJSON() {
+        double rating = getRating();
+        return new JSONObject()
+                .put("item_id", itemId)
+                .put("store_name", getStoreName())
+                .put("cover_picture", getCoverPicture())
+                .put("logo_picture", getLogoPicture())
+                .put("category", getCategory())
+                .put("address", getAddress())
+                .put("description", getDescription())
+                .put("items_available", itemsAvailable)
+                .put("rating", Double.isNaN(rating) ? "" : rating)
+                .put("price_after", getPriceAfter())
+                .put("price_before", getPriceBefore())
+                .put("pickup_start", getPickupStart())
+                .put("pickup_end", getPickupEnd());
+    }
+
+    @Override
+    public String toJSONString() {
+        return toJSON().toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJSONString();
+    }
+}
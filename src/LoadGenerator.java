@@ -0,0 +1,194 @@
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadGenerator {
+    private static final Logger logger = LogManager.getLogger(LoadGenerator.class);
+
+    private final int targetRps;
+    private final long durationMillis;
+    private final int concurrency;
+
+    public LoadGenerator(int targetRps, long durationMillis, int concurrency) {
+        if (targetRps <= 0 || durationMillis <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Rate, duration and concurrency must be positive");
+        }
+        this.targetRps = targetRps;
+        this.durationMillis = durationMillis;
+        this.concurrency = concurrency;
+    }
+
+    // Open-loop: requests are issued on a fixed schedule and latency is measured from the scheduled
+    // start, so a slow server shows up as latency instead of silently lowering the offered rate.
+    public LoadReport run(Callable<? extends ApiResult<?>> request) throws InterruptedException {
+        long totalRequests = targetRps * durationMillis / 1000;
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / targetRps;
+        long[] latencies = new long[(int) totalRequests];
+        AtomicLong issued = new AtomicLong();
+        LongAdder successes = new LongAdder();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long startNanos = System.nanoTime();
+
+        scheduler.scheduleAtFixedRate(() -> {
+            long index = issued.getAndIncrement();
+            if (index >= totalRequests) {
+                return;
+            }
+            long scheduledNanos = startNanos + index * periodNanos;
+            workers.execute(() -> {
+                String outcome;
+                try {
+                    ApiResult<?> result = request.call();
+                    if (result.isSuccess()) {
+                        outcome = null;
+                    } else {
+                        outcome = result.getStatusCode() > 0
+                                ? result.getStatus() + " " + result.getStatusCode()
+                                : result.getStatus().toString();
+                    }
+                } catch (Exception e) {
+                    outcome = e.getClass().getSimpleName();
+                }
+                latencies[(int) index] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos);
+
+                if (outcome == null) {
+                    successes.increment();
+                } else {
+                    errors.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                }
+            });
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        while (issued.get() < totalRequests) {
+            Thread.sleep(10);
+        }
+        scheduler.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(durationMillis + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS)) {
+            logger.error("Load generator workers did not finish in time");
+            workers.shutdownNow();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        Map<String, Long> errorCounts = new HashMap<>();
+        errors.forEach((key, count) -> errorCounts.put(key, count.sum()));
+
+        return new LoadReport(totalRequests, successes.sum(), errorCounts, latencies, elapsedSeconds);
+    }
+
+    // Caller-thread CPU per getItems poll against the stub, once reading only items_available and once
+    // formatting every field. HTTP runs on the client's own threads, so this is mostly parsing and formatting.
+    public static void measureCpuPerPoll(TgtgClient tgtgClient, int polls) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long sink = 0;
+
+        for (int i = 0; i < polls; i++) {
+            for (ItemResult item : pollItems(tgtgClient)) {
+                sink += item.getItemsAvailable() + item.toJSONString().length();
+            }
+        }
+
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < polls; i++) {
+            for (ItemResult item : pollItems(tgtgClient)) {
+                sink += item.getItemsAvailable();
+            }
+        }
+        long stockOnly = threads.getCurrentThreadCpuTime() - start;
+
+        start = threads.getCurrentThreadCpuTime();
+        int itemCount = 0;
+        for (int i = 0; i < polls; i++) {
+            List<ItemResult> items = pollItems(tgtgClient);
+            itemCount = items.size();
+            for (ItemResult item : items) {
+                sink += item.toJSONString().length();
+            }
+        }
+        long formatted = threads.getCurrentThreadCpuTime() - start;
+
+        logger.info("Caller CPU per poll of {} items over {} polls: stock-only {} us, fully formatted {} us ({})",
+                itemCount, polls, TimeUnit.NANOSECONDS.toMicros(stockOnly / polls),
+                TimeUnit.NANOSECONDS.toMicros(formatted / polls), sink);
+    }
+
+    private static List<ItemResult> pollItems(TgtgClient tgtgClient) {
+        return tgtgClient.getItems(0, 0, 5, 50, 1, false, false, null, null, null, null, null, false, false, false)
+                .getValueOrElse(List.of());
+    }
+
+    // Usage: LoadGenerator [endpoint=items|item|favorites] [rps] [seconds] [latency_ms] [error_rate] [throttle_rate] [hedging] [recordings_dir]
+    //        LoadGenerator cpu [polls] [recordings_dir]
+    public static void main(String[] args) throws Exception {
+        String endpoint = args.length > 0 ? args[0] : "items";
+        if (endpoint.equals("cpu")) {
+            int polls = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+            try (StubServer stub = new StubServer(0).start()) {
+                if (args.length > 2) {
+                    stub.loadRecordings(Paths.get(args[2]));
+                }
+                measureCpuPerPoll(createStubClient(stub), polls);
+            }
+            return;
+        }
+
+        int rps = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long latency = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        double errorRate = args.length > 4 ? Double.parseDouble(args[4]) : 0.0;
+        double throttleRate = args.length > 5 ? Double.parseDouble(args[5]) : 0.0;
+        boolean hedging = args.length > 6 && Boolean.parseBoolean(args[6]);
+        Path recordings = args.length > 7 ? Paths.get(args[7]) : null;
+
+        try (StubServer stub = new StubServer(0).setLatency(latency, latency / 2).start()) {
+            stub.setFaults(errorRate, 0.0, throttleRate);
+            if (recordings != null) {
+                stub.loadRecordings(recordings);
+            }
+
+            TgtgClient tgtgClient = createStubClient(stub);
+            tgtgClient.setHedging(hedging);
+
+            Callable<ApiResult<?>> request = switch (endpoint) {
+                case "item" -> () -> tgtgClient.getItem("100000");
+                case "favorites" -> tgtgClient::getFavorites;
+                default -> () -> tgtgClient.getItems(0, 0, 5, 50, 1, false, false, null, null, null, null, null, false, false, false);
+            };
+
+            // Warm up token refresh and JIT before measuring.
+            request.call();
+            stub.resetStatusCounts();
+
+            LoadReport report = new LoadGenerator(rps, seconds * 1000L, Math.max(4, rps / 5)).run(request);
+            logger.info("Load test {} at {} req/s for {}s: {}", endpoint, rps, seconds, report);
+            logger.info("Stub status codes: {}", stub.getStatusCounts());
+        }
+    }
+
+    private static TgtgClient createStubClient(StubServer stub) {
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("access_token", "stub-access-token");
+        credentials.put("refresh_token", "stub-refresh-token");
+        credentials.put("user_id", "1");
+        credentials.put("cookie", "datadome=stub");
+        return new TgtgClient("stub@example.com", credentials, stub.getBaseUrl(), "TGTG/stub");
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class LoadReport {
+    private final long requests;
+    private final long successes;
+    private final Map<String, Long> errors;
+    private final long[] latenciesMicros;
+    private final double elapsedSeconds;
+
+    public LoadReport(long requests, long successes, Map<String, Long> errors, long[] latenciesMicros, double elapsedSeconds) {
+        this.requests = requests;
+        this.successes = successes;
+        this.errors = new TreeMap<>(errors);
+        this.latenciesMicros = latenciesMicros.clone();
+        Arrays.sort(this.latenciesMicros);
+        this.elapsedSeconds = elapsedSeconds;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+
+    // Rate at which requests were issued, failures included.
+    public double getOfferedRate() {
+        return elapsedSeconds > 0 ? requests / elapsedSeconds : 0;
+    }
+
+    // Successful completions per second.
+    public double getThroughput() {
+        return elapsedSeconds > 0 ? successes / elapsedSeconds : 0;
+    }
+
+    public double getPercentileMillis(double percentile) {
+        if (latenciesMicros.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * latenciesMicros.length) - 1;
+        return latenciesMicros[Math.max(0, Math.min(index, latenciesMicros.length - 1))] / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "requests=%d ok=%d offered=%.1f req/s throughput=%.1f req/s p50=%.1fms p99=%.1fms max=%.1fms errors=%s".formatted(
+                requests,
+                successes,
+                getOfferedRate(),
+                getThroughput(),
+                getPercentileMillis(50),
+                getPercentileMillis(99),
+                getPercentileMillis(100),
+                errors
+        );
+    }
+}
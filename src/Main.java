@@ -3,6 +3,7 @@ import org.apache.logging.log4j.Logger;
 import org.json.JSONObject;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class Main {
@@ -54,23 +55,31 @@ public class Main {
 
         TgtgClient tgtgClient = new TgtgClient(email, credentialsMap);
 
-        System.out.println(tgtgClient.getItems(
-                latitude,
-                longitude,
-                range,
-                50,
-                1,
-                false,
-                false,
-                null,
-                null,
-                null,
-                null,
-                null,
-                false,
-                false,
-                false
-        ));
+        try (NotificationPipeline pipeline = NotificationPipeline.fromConfig(config)) {
+            ApiResult<List<ItemResult>> items = tgtgClient.getItems(
+                    latitude,
+                    longitude,
+                    range,
+                    50,
+                    1,
+                    false,
+                    false,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    false,
+                    false,
+                    false
+            );
+
+            if (items.isSuccess()) {
+                pipeline.publishItems(items.getValue());
+            } else {
+                logger.error("Could not get items: {}", items);
+            }
+        }
 
         // System.out.println(tgtgClient.getItem("item_id"));
 
@@ -0,0 +1,117 @@
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class NotificationPipeline implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(NotificationPipeline.class);
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final long DEFAULT_BLOCK_TIMEOUT = 50; // 50 Milliseconds
+    private static final int DEFAULT_WEBHOOK_TIMEOUT = 10_000; // 10 Seconds
+
+    private final List<SinkChannel> channels = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> lastStock = new ConcurrentHashMap<>();
+
+    public SinkChannel addSink(NotificationSink sink, int capacity, BackpressurePolicy policy, long blockTimeoutMillis) {
+        SinkChannel channel = new SinkChannel(sink, capacity, policy, blockTimeoutMillis);
+        channels.add(channel);
+        logger.info("Registered sink {} (capacity={}, policy={})", sink.getName(), capacity, policy);
+        return channel;
+    }
+
+    public SinkChannel addSink(NotificationSink sink) {
+        return addSink(sink, DEFAULT_QUEUE_CAPACITY, BackpressurePolicy.DROP_OLDEST, DEFAULT_BLOCK_TIMEOUT);
+    }
+
+    // Emits an event for every item that is in stock now but was unknown or sold out on the previous call.
+    public int publishItems(List<ItemResult> items) {
+        long startNanos = System.nanoTime();
+        int published = 0;
+        for (ItemResult item : items) {
+            String itemId = item.getItemId();
+            int available = item.getItemsAvailable();
+            Integer previous = lastStock.put(itemId, available);
+
+            if (available > 0 && (previous == null || previous == 0)) {
+                publish(new ItemEvent(itemId, item), startNanos);
+                published++;
+            }
+        }
+        return published;
+    }
+
+    public void publish(ItemEvent event) {
+        publish(event, System.nanoTime());
+    }
+
+    // All sinks share the same start, so blocking sinks together wait no longer than the largest block timeout.
+    private void publish(ItemEvent event, long startNanos) {
+        for (SinkChannel channel : channels) {
+            channel.offer(event, startNanos);
+        }
+    }
+
+    public List<SinkMetrics> getMetrics() {
+        List<SinkMetrics> metrics = new ArrayList<>(channels.size());
+        for (SinkChannel channel : channels) {
+            metrics.add(channel.getMetrics());
+        }
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        for (SinkChannel channel : channels) {
+            channel.close();
+        }
+        for (SinkMetrics metrics : getMetrics()) {
+            logger.info("Sink closed. {}", metrics);
+        }
+    }
+
+    public static NotificationPipeline fromConfig(JSONObject config) {
+        NotificationPipeline pipeline = new NotificationPipeline();
+
+        JSONObject notifications = config != null && config.has("notifications")
+                ? config.getJSONObject("notifications")
+                : new JSONObject();
+
+        int capacity = notifications.optInt("queue_capacity", DEFAULT_QUEUE_CAPACITY);
+        long blockTimeout = notifications.optLong("block_timeout_ms", DEFAULT_BLOCK_TIMEOUT);
+        BackpressurePolicy policy = BackpressurePolicy.DROP_OLDEST;
+        if (notifications.has("backpressure")) {
+            try {
+                policy = BackpressurePolicy.valueOf(notifications.getString("backpressure").toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                logger.error("Unknown backpressure policy {}, using {}", notifications.getString("backpressure"), policy);
+            }
+        }
+
+        if (notifications.optBoolean("stdout", true)) {
+            pipeline.addSink(new ConsoleSink(System.out), capacity, policy, blockTimeout);
+        }
+
+        if (notifications.has("file")) {
+            pipeline.addSink(new FileSink(Paths.get(notifications.getString("file"))), capacity, policy, blockTimeout);
+        }
+
+        JSONArray webhooks = notifications.optJSONArray("webhooks");
+        if (webhooks != null) {
+            int timeout = notifications.optInt("webhook_timeout_ms", DEFAULT_WEBHOOK_TIMEOUT);
+            for (int i = 0; i < webhooks.length(); i++) {
+                pipeline.addSink(new WebhookSink(webhooks.getString(i), timeout), capacity, policy, blockTimeout);
+            }
+        }
+
+        return pipeline;
+    }
+}
@@ -0,0 +1,13 @@
+import java.io.IOException;
+import java.util.List;
+
+public interface NotificationSink {
+
+    String getName();
+
+    void send(List<ItemEvent> events) throws IOException;
+
+    default int getMaxBatchSize() {
+        return 1;
+    }
+}
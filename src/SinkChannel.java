@@ -0,0 +1,219 @@
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SinkChannel implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(SinkChannel.class);
+    private static final long CLOSE_WAIT_TIME = 5; // 5 Seconds
+
+    private final NotificationSink sink;
+    private final int capacity;
+    private final BackpressurePolicy policy;
+    private final long blockTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Slot> queue = new ArrayDeque<>();
+    private final Map<String, Slot> pending = new HashMap<>();
+    private final Thread worker;
+    private boolean closed;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong lastLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    private static class Slot {
+        private ItemEvent event;
+
+        private Slot(ItemEvent event) {
+            this.event = event;
+        }
+    }
+
+    public SinkChannel(NotificationSink sink, int capacity, BackpressurePolicy policy, long blockTimeoutMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive, got " + capacity);
+        }
+        this.sink = sink;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+
+        this.worker = new Thread(this::run, "sink-" + sink.getName());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public NotificationSink getSink() {
+        return sink;
+    }
+
+    public boolean offer(ItemEvent event) {
+        return offer(event, System.nanoTime());
+    }
+
+    // Under BLOCK, waits at most until startNanos plus the block timeout. Callers offering a whole batch
+    // pass the same start, so one stalled sink costs the caller a single block timeout per batch.
+    public boolean offer(ItemEvent event, long startNanos) {
+        lock.lock();
+        try {
+            if (closed) {
+                dropped.incrementAndGet();
+                return false;
+            }
+
+            if (policy == BackpressurePolicy.COALESCE) {
+                Slot existing = pending.get(event.getItemId());
+                if (existing != null) {
+                    existing.event = event;
+                    coalesced.incrementAndGet();
+                    return true;
+                }
+            }
+
+            if (queue.size() >= capacity) {
+                if (policy == BackpressurePolicy.BLOCK) {
+                    long remaining = startNanos + blockTimeoutNanos - System.nanoTime();
+                    while (queue.size() >= capacity && remaining > 0 && !closed) {
+                        remaining = notFull.awaitNanos(remaining);
+                    }
+                    if (queue.size() >= capacity || closed) {
+                        dropped.incrementAndGet();
+                        logger.warn("Sink {} is full, dropping event for item {}", sink.getName(), event.getItemId());
+                        return false;
+                    }
+                } else {
+                    Slot oldest = queue.pollFirst();
+                    pending.remove(oldest.event.getItemId(), oldest);
+                    dropped.incrementAndGet();
+                }
+            }
+
+            Slot slot = new Slot(event);
+            queue.addLast(slot);
+            if (policy == BackpressurePolicy.COALESCE) {
+                pending.put(event.getItemId(), slot);
+            }
+            published.incrementAndGet();
+            notEmpty.signal();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        int batchSize = Math.max(1, sink.getMaxBatchSize());
+
+        while (true) {
+            List<ItemEvent> events = new ArrayList<>(batchSize);
+
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    notEmpty.await();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                while (!queue.isEmpty() && events.size() < batchSize) {
+                    Slot slot = queue.pollFirst();
+                    pending.remove(slot.event.getItemId(), slot);
+                    events.add(slot.event);
+                }
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                logger.warn("Sink {} worker interrupted with {} events pending", sink.getName(), queue.size());
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                sink.send(events);
+                delivered.addAndGet(events.size());
+            } catch (Exception e) {
+                failed.addAndGet(events.size());
+                logger.error("Error during sending {} events to sink {}", events.size(), sink.getName(), e);
+            }
+
+            // Measured from event creation, so time spent waiting for room under BLOCK counts as lag too.
+            long oldestCreated = Long.MAX_VALUE;
+            for (ItemEvent event : events) {
+                oldestCreated = Math.min(oldestCreated, event.getCreatedNanos());
+            }
+            long lag = System.nanoTime() - oldestCreated;
+            lastLagNanos.set(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+        }
+    }
+
+    public SinkMetrics getMetrics() {
+        int depth;
+        long oldestPending = 0;
+        lock.lock();
+        try {
+            depth = queue.size();
+            Slot head = queue.peekFirst();
+            if (head != null) {
+                oldestPending = System.nanoTime() - head.event.getCreatedNanos();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return new SinkMetrics(
+                sink.getName(),
+                depth,
+                published.get(),
+                delivered.get(),
+                dropped.get(),
+                coalesced.get(),
+                failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(lastLagNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(oldestPending)
+        );
+    }
+
+    // Stops accepting events and gives the worker a bounded time to drain what is already queued.
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(CLOSE_WAIT_TIME));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            logger.error("Sink {} did not drain in time, abandoning pending events", sink.getName());
+            worker.interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+public class SinkMetrics {
+    private final String sinkName;
+    private final int queueDepth;
+    private final long published;
+    private final long delivered;
+    private final long dropped;
+    private final long coalesced;
+    private final long failed;
+    private final long lastLagMillis;
+    private final long maxLagMillis;
+    private final long oldestPendingMillis;
+
+    public SinkMetrics(String sinkName, int queueDepth, long published, long delivered, long dropped,
+                       long coalesced, long failed, long lastLagMillis, long maxLagMillis, long oldestPendingMillis) {
+        this.sinkName = sinkName;
+        this.queueDepth = queueDepth;
+        this.published = published;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.coalesced = coalesced;
+        this.failed = failed;
+        this.lastLagMillis = lastLagMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.oldestPendingMillis = oldestPendingMillis;
+    }
+
+    public String getSinkName() {
+        return sinkName;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    // Time between an event entering the queue and the sink finishing with it.
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    // Age of the event currently waiting at the head of the queue, 0 when empty.
+    public long getOldestPendingMillis() {
+        return oldestPendingMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "%s: depth=%d published=%d delivered=%d dropped=%d coalesced=%d failed=%d lag=%dms maxLag=%dms oldestPending=%dms"
+                .formatted(sinkName, queueDepth, published, delivered, dropped, coalesced, failed,
+                        lastLagMillis, maxLagMillis, oldestPendingMillis);
+    }
+}
@@ -0,0 +1,343 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Local stand-in for apptoogoodtogo.com that replays recorded responses for every TgtgClient endpoint.
+public class StubServer implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(StubServer.class);
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int DEFAULT_THREADS = 32;
+    private static final int DEFAULT_ITEM_COUNT = 50;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, String> recordings = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile double badRequestRate;
+    private volatile double throttleRate;
+
+    static {
+        // Without this the JDK server leaves Nagle on, adding ~40 ms of delayed-ACK wait to every response.
+        // It is read once when the server classes load, so it has to be set before the first HttpServer.create.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StubServer(int port) throws IOException {
+        this(port, DEFAULT_THREADS);
+    }
+
+    public StubServer(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+
+        recordDefaults(DEFAULT_ITEM_COUNT);
+    }
+
+    public StubServer start() {
+        server.start();
+        logger.info("Stub server listening on {}", getBaseUrl());
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/api/";
+    }
+
+    public StubServer setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        return this;
+    }
+
+    // Rates are probabilities in [0, 1]; 400 is what the real API answers when it rate limits.
+    public StubServer setFaults(double errorRate, double badRequestRate, double throttleRate) {
+        this.errorRate = errorRate;
+        this.badRequestRate = badRequestRate;
+        this.throttleRate = throttleRate;
+        return this;
+    }
+
+    public StubServer record(String route, String body) {
+        recordings.put(route, body);
+        return this;
+    }
+
+    // Loads <route>.json files, e.g. item.json or bucket.json, replacing the built-in responses.
+    public StubServer loadRecordings(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String route = fileName.substring(0, fileName.length() - ".json".length());
+                recordings.put(route, Files.readString(file));
+                logger.info("Loaded recording for route {} from {}", route, file);
+            }
+        }
+        return this;
+    }
+
+    public static void saveRecording(Path directory, String route, String body) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(route + ".json"), body);
+        logger.info("Saved recording for route {} to {}", route, directory);
+    }
+
+    // Captures live item/v8, item/v8/{id} and discover/v1/bucket responses for later replay with loadRecordings.
+    public static void recordFrom(TgtgClient tgtgClient, Path directory, double latitude, double longitude, int radius)
+            throws IOException {
+        ApiResult<List<ItemResult>> items = tgtgClient.getItems(latitude, longitude, radius, 50, 1, false, false,
+                null, null, null, null, null, false, false, false);
+        if (items.isSuccess()) {
+            JSONArray rawItems = new JSONArray();
+            for (ItemResult item : items.getValue()) {
+                rawItems.put(item.getRaw());
+            }
+            saveRecording(directory, "item", new JSONObject().put("items", rawItems).toString());
+
+            if (!items.getValue().isEmpty()) {
+                ApiResult<JSONObject> item = tgtgClient.getItem(items.getValue().get(0).getItemId());
+                if (item.isSuccess()) {
+                    saveRecording(directory, "item_by_id", item.getValue().toString());
+                }
+            }
+        } else {
+            logger.error("Could not record items: {}", items);
+        }
+
+        ApiResult<JSONObject> favorites = tgtgClient.getFavorites();
+        if (favorites.isSuccess()) {
+            saveRecording(directory, "bucket", favorites.getValue().toString());
+        } else {
+            logger.error("Could not record favorites: {}", favorites);
+        }
+    }
+
+    // Usage: StubServer <recordings directory>. Records real responses using the account and location in config.json.
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "resources/recordings");
+        JSONObject config = Config.loadConfig("resources/config.json");
+        if (config == null || !config.has("tgtg") || !config.has("location")) {
+            logger.error("Run Main once to create resources/config.json before recording");
+            return;
+        }
+
+        JSONObject tgtg = config.getJSONObject("tgtg");
+        Map<String, String> credentials = new HashMap<>();
+        JSONObject storedCredentials = tgtg.optJSONObject("credentials");
+        if (storedCredentials != null) {
+            for (String key : storedCredentials.keySet()) {
+                credentials.put(key, storedCredentials.getString(key));
+            }
+        }
+
+        JSONObject location = config.getJSONObject("location");
+        TgtgClient tgtgClient = new TgtgClient(tgtg.optString("email", null), credentials);
+        recordFrom(tgtgClient, directory, location.getDouble("lat"), location.getDouble("lon"), location.getInt("range"));
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        statusCounts.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+
+    public void resetStatusCounts() {
+        statusCounts.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.readAllBytes();
+
+            String path = exchange.getRequestURI().getPath().replaceAll("/+", "/");
+            String apiPath = path.substring("/api/".length());
+            String route = resolveRoute(apiPath);
+            boolean auth = apiPath.startsWith("auth/v3/");
+
+            sleep();
+
+            int statusCode = HttpURLConnection.HTTP_OK;
+            String body = route != null ? recordings.get(route) : null;
+            if (body == null) {
+                statusCode = HttpURLConnection.HTTP_NOT_FOUND;
+                body = new JSONObject().put("errors", new JSONArray().put(new JSONObject().put("code", "NOT_FOUND"))).toString();
+            } else if (!auth) {
+                // Auth routes are kept healthy so faults only show up on the endpoints under test.
+                statusCode = injectFault();
+                if (statusCode != HttpURLConnection.HTTP_OK) {
+                    body = new JSONObject().put("errors", new JSONArray().put(new JSONObject().put("code", statusCode))).toString();
+                }
+            }
+
+            statusCounts.computeIfAbsent((route != null ? route : path) + " " + statusCode, key -> new LongAdder()).increment();
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (auth) {
+                exchange.getResponseHeaders().set("Set-Cookie", "datadome=stub; Path=/");
+            }
+            exchange.sendResponseHeaders(statusCode, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String resolveRoute(String path) {
+        String[] segments = path.split("/");
+
+        if (path.equals("item/v8/") || path.equals("item/v8")) {
+            return "item";
+        } else if (segments.length == 3 && path.startsWith("item/v8/")) {
+            return "item_by_id";
+        } else if (segments.length == 4 && path.startsWith("item/v8/") && segments[3].equals("setFavorite")) {
+            return "set_favorite";
+        } else if (path.equals("discover/v1/bucket")) {
+            return "bucket";
+        } else if (path.equals("auth/v3/authByEmail")) {
+            return "auth_by_email";
+        } else if (path.equals("auth/v3/authByRequestPollingId")) {
+            return "auth_polling";
+        } else if (path.equals("auth/v3/signUpByEmail")) {
+            return "signup_by_email";
+        } else if (path.equals("auth/v3/token/refresh")) {
+            return "token_refresh";
+        } else if (path.equals("order/v7/active")) {
+            return "order_active";
+        } else if (path.equals("order/v7/inactive")) {
+            return "order_inactive";
+        } else if (segments.length == 4 && path.startsWith("order/v7/create/")) {
+            return "order_create";
+        } else if (segments.length == 4 && path.startsWith("order/v7/") && segments[3].equals("abort")) {
+            return "order_abort";
+        } else if (segments.length == 4 && path.startsWith("order/v7/") && segments[3].equals("status")) {
+            return "order_status";
+        }
+        return null;
+    }
+
+    private void sleep() {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int injectFault() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < throttleRate) {
+            return HTTP_TOO_MANY_REQUESTS;
+        }
+        roll -= throttleRate;
+        if (roll < badRequestRate) {
+            return HttpURLConnection.HTTP_BAD_REQUEST;
+        }
+        roll -= badRequestRate;
+        if (roll < errorRate) {
+            return HttpURLConnection.HTTP_INTERNAL_ERROR;
+        }
+        return HttpURLConnection.HTTP_OK;
+    }
+
+    private void recordDefaults(int itemCount) {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < itemCount; i++) {
+            items.put(sampleItem(i));
+        }
+
+        record("item", new JSONObject().put("items", items).toString());
+        record("item_by_id", sampleItem(0).toString());
+        record("set_favorite", "{}");
+        record("bucket", new JSONObject()
+                .put("mobile_bucket", new JSONObject()
+                        .put("filler_type", "Favorites")
+                        .put("items", items))
+                .toString());
+
+        JSONObject tokens = new JSONObject()
+                .put("access_token", "stub-access-token")
+                .put("refresh_token", "stub-refresh-token")
+                .put("access_token_ttl_seconds", 172800);
+        record("auth_by_email", new JSONObject().put("state", "WAIT").put("polling_id", "stub-polling-id").toString());
+        record("signup_by_email", new JSONObject().put("state", "WAIT").put("polling_id", "stub-polling-id").toString());
+        record("auth_polling", new JSONObject(tokens.toString())
+                .put("startup_data", new JSONObject().put("user", new JSONObject().put("user_id", "1")))
+                .toString());
+        record("token_refresh", tokens.toString());
+
+        record("order_active", new JSONObject().put("orders", new JSONArray()).toString());
+        record("order_inactive", new JSONObject().put("orders", new JSONArray()).put("has_more", false).toString());
+        record("order_create", new JSONObject()
+                .put("state", "SUCCESS")
+                .put("order", new JSONObject().put("id", "stub-order-id").put("state", "RESERVED"))
+                .toString());
+        record("order_abort", new JSONObject().put("state", "SUCCESS").toString());
+        record("order_status", new JSONObject().put("id", "stub-order-id").put("state", "RESERVED").toString());
+    }
+
+    private static JSONObject sampleItem(int index) {
+        Instant pickupStart = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(index % 12, ChronoUnit.HOURS);
+
+        return new JSONObject()
+                .put("item", new JSONObject()
+                        .put("item_id", String.valueOf(100000 + index))
+                        .put("item_category", index % 3 == 0 ? "BAKED_GOODS" : "MEAL")
+                        .put("description", "Surprise bag number " + index)
+                        .put("cover_picture", new JSONObject().put("current_url", "https://images.example/cover/" + index))
+                        .put("logo_picture", new JSONObject().put("current_url", "https://images.example/logo/" + index))
+                        .put("item_price", new JSONObject().put("code", "EUR").put("minor_units", 399 + index).put("decimals", 2))
+                        .put("item_value", new JSONObject().put("code", "EUR").put("minor_units", 1200 + index).put("decimals", 2))
+                        .put("average_overall_rating", new JSONObject().put("average_overall_rating", 3.5 + (index % 15) / 10.0)))
+                .put("store", new JSONObject()
+                        .put("store_name", "Stub Store " + (index % 10))
+                        .put("store_location", new JSONObject()
+                                .put("address", new JSONObject().put("address_line", index + " Stub Street"))))
+                .put("items_available", index % 4)
+                .put("pickup_interval", new JSONObject()
+                        .put("start", pickupStart.toString())
+                        .put("end", pickupStart.plus(1, ChronoUnit.HOURS).toString()));
+    }
+}
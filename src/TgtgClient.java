@@ -1,27 +1,37 @@
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
-import org.jsoup.Connection;
-import org.jsoup.Connection.Response;
-import org.jsoup.Jsoup;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 public class TgtgClient {
     private static final Logger logger = LogManager.getLogger(TgtgClient.class);
@@ -47,23 +57,64 @@ public class TgtgClient {
     private static final int DEFAULT_ACCESS_TOKEN_LIFETIME = 3600 * 4; // 4 hours
     private static final int MAX_POLLING_TRIES = 30; // 30 * POLLING_WAIT_TIME = 5 minutes
     private static final int POLLING_WAIT_TIME = 10; // 10 Seconds
-
+    private static final int DEFAULT_CONNECT_TIMEOUT = 5_000; // 5 Seconds
+    private static final int DEFAULT_READ_TIMEOUT = 15_000; // 15 Seconds
+    private static final int DEFAULT_TOTAL_TIMEOUT = 30_000; // 30 Seconds
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_OPEN_TIME = 30_000; // 30 Seconds
+    private static final int LATENCY_WINDOW = 200;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    private static final double HEDGE_PERCENTILE = 95;
+    private static final int HEDGE_WINDOW = 100;
+    private static final double MAX_HEDGE_RATIO = 0.1; // at most 10% of recent calls are hedged
+
+    private final String base_url;
     private final String email;
     private String access_token;
     private String refresh_token;
     private String user_id;
     private final String user_agent;
-    private int timeout;
+    private int connect_timeout = DEFAULT_CONNECT_TIMEOUT;
+    private int read_timeout = DEFAULT_READ_TIMEOUT;
+    private int total_timeout = DEFAULT_TOTAL_TIMEOUT;
+    private boolean hedging;
     private LocalDateTime last_time_token_refreshed;
     private final String device_type = "ANDROID";
     private String cookie;
-
+    private final Map<String, CircuitBreaker> circuit_breakers = new ConcurrentHashMap<>();
+    private final Map<String, LatencyTracker> latency_trackers = new ConcurrentHashMap<>();
+    private final Map<String, HedgeBudget> hedge_budgets = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "tgtg-http");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class RawResponse {
+        private final int statusCode;
+        private final String body;
+        private final String cookie;
+
+        private RawResponse(int statusCode, String body, String cookie) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.cookie = cookie;
+        }
+    }
 
     public TgtgClient(String email, Map<String, String> credentials) {
+        this(email, credentials, BASE_URL, null);
+    }
+
+    // baseUrl and userAgent can be overridden to run against a local stub without touching the network.
+    public TgtgClient(String email, Map<String, String> credentials, String baseUrl, String userAgent) {
+
+        this.base_url = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
 
         this.email = email;
 
-        this.user_agent = getUserAgent();
+        this.user_agent = userAgent != null ? userAgent : getUserAgent();
 
         if (credentials != null) {
             if (credentials.containsKey("access_token")) {
@@ -84,6 +135,22 @@ public class TgtgClient {
         }
     }
 
+    // Connect and read bound each socket operation; total bounds the whole call including a hedged attempt.
+    public void setTimeouts(int connectTimeout, int readTimeout, int totalTimeout) {
+        this.connect_timeout = connectTimeout;
+        this.read_timeout = readTimeout;
+        this.total_timeout = totalTimeout;
+    }
+
+    // When enabled, idempotent reads fire a second attempt once the first runs past the endpoint's observed p95.
+    public void setHedging(boolean hedging) {
+        this.hedging = hedging;
+    }
+
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuit_breakers);
+    }
+
     private String getUserAgent() {
         String version;
         try {
@@ -100,7 +167,7 @@ public class TgtgClient {
 
     private String getUrl(String... pathSegments) {
         try {
-            URI baseUri = new URI(BASE_URL);
+            URI baseUri = new URI(base_url);
             URI resolvedUri = baseUri.resolve(String.join("/", pathSegments));
             logger.info("Success in joining URL.");
             return resolvedUri.toString();
@@ -144,43 +211,225 @@ public class TgtgClient {
                 && user_id != null && !user_id.isEmpty());
     }
 
+    private ApiResult<RawResponse> post(String endpoint, String url, JSONObject requestBody, boolean idempotent) {
+        CircuitBreaker circuitBreaker = circuit_breakers.computeIfAbsent(endpoint,
+                name -> new CircuitBreaker(name, CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN_TIME));
+        long generation = circuitBreaker.tryAcquire();
+        if (generation == CircuitBreaker.REJECTED) {
+            return ApiResult.failure(ApiResult.Status.CIRCUIT_OPEN, 0, "Circuit open for " + endpoint);
+        }
+
+        // A half-open probe is sent alone so the circuit is judged on a single request.
+        boolean hedged = idempotent && hedging && circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+        ApiResult<RawResponse> result = execute(endpoint, url, requestBody.toString(), hedged);
+
+        if (result.isSuccess()) {
+            circuitBreaker.recordSuccess(generation);
+        } else if (result.isEndpointFailure()) {
+            circuitBreaker.recordFailure(generation);
+        } else {
+            circuitBreaker.recordIgnored(generation);
+        }
+        return result;
+    }
+
+    private ApiResult<RawResponse> execute(String endpoint, String url, String requestBody, boolean hedged) {
+        LatencyTracker latencyTracker = latency_trackers.computeIfAbsent(endpoint,
+                name -> new LatencyTracker(LATENCY_WINDOW, MIN_HEDGE_SAMPLES));
+        HedgeBudget hedgeBudget = hedge_budgets.computeIfAbsent(endpoint,
+                name -> new HedgeBudget(HEDGE_WINDOW, MAX_HEDGE_RATIO));
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(total_timeout);
+        long hedgeDelay = hedged ? latencyTracker.getPercentileNanos(HEDGE_PERCENTILE) : -1;
+
+        Map<String, String> headers = getHeaders();
+        ExecutorCompletionService<ApiResult<RawResponse>> completionService = new ExecutorCompletionService<>(executor);
+        List<Attempt> attempts = new ArrayList<>(2);
+        List<Future<ApiResult<RawResponse>>> futures = new ArrayList<>(2);
+
+        Attempt first = new Attempt(url, requestBody, headers, deadline);
+        attempts.add(first);
+        futures.add(completionService.submit(first));
+
+        ApiResult<RawResponse> lastFailure = null;
+        int pending = 1;
+        boolean hedgeSent = hedgeDelay < 0;
+        boolean hedgeUsed = false;
+        boolean interrupted = false;
+        try {
+            while (pending > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+
+                Future<ApiResult<RawResponse>> completed = completionService.poll(
+                        hedgeSent ? remaining : Math.min(remaining, hedgeDelay), TimeUnit.NANOSECONDS);
+                if (completed == null) {
+                    if (!hedgeSent) {
+                        hedgeSent = true;
+                        if (hedgeBudget.canHedge()) {
+                            logger.info("Hedging request to {} after {} ms", endpoint, TimeUnit.NANOSECONDS.toMillis(hedgeDelay));
+                            Attempt second = new Attempt(url, requestBody, headers, deadline);
+                            attempts.add(second);
+                            futures.add(completionService.submit(second));
+                            pending++;
+                            hedgeUsed = true;
+                        }
+                    }
+                    continue;
+                }
+
+                pending--;
+                ApiResult<RawResponse> result = completed.get();
+                if (result.isSuccess()) {
+                    return result;
+                }
+                lastFailure = result;
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+            Thread.currentThread().interrupt();
+            return ApiResult.failure(ApiResult.Status.INTERRUPTED, 0, "Interrupted while calling " + endpoint);
+        } catch (ExecutionException e) {
+            return ApiResult.failure(ApiResult.Status.NETWORK_ERROR, 0, String.valueOf(e.getCause()));
+        } finally {
+            // Latency as seen by the caller, so attempts that lose to a hedge still pull the p95 up.
+            if (!interrupted) {
+                latencyTracker.record(System.nanoTime() - start);
+            }
+            hedgeBudget.record(hedgeUsed);
+            for (Attempt attempt : attempts) {
+                attempt.abort();
+            }
+            for (Future<ApiResult<RawResponse>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        if (lastFailure != null) {
+            return lastFailure;
+        }
+        return ApiResult.failure(ApiResult.Status.TIMEOUT, 0,
+                "Total deadline of " + total_timeout + " ms exceeded for " + endpoint);
+    }
+
+    private class Attempt implements Callable<ApiResult<RawResponse>> {
+        private final String url;
+        private final String requestBody;
+        private final Map<String, String> headers;
+        private final long deadline;
+        private volatile HttpURLConnection connection;
+        private volatile boolean aborted;
+
+        private Attempt(String url, String requestBody, Map<String, String> headers, long deadline) {
+            this.url = url;
+            this.requestBody = requestBody;
+            this.headers = headers;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public ApiResult<RawResponse> call() {
+            long start = System.nanoTime();
+            int remaining = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - start));
+            HttpURLConnection conn = null;
+            try {
+                conn = (HttpURLConnection) new URL(url).openConnection();
+                connection = conn;
+                if (aborted) {
+                    return ApiResult.failure(ApiResult.Status.TIMEOUT, 0, "Attempt aborted");
+                }
+                conn.setRequestMethod("POST");
+                conn.setDoOutput(true);
+                conn.setConnectTimeout(Math.min(connect_timeout, remaining));
+                conn.setReadTimeout(Math.min(read_timeout, remaining));
+                headers.forEach(conn::setRequestProperty);
+
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(requestBody.getBytes(StandardCharsets.UTF_8));
+                }
+
+                int statusCode = conn.getResponseCode();
+                String body = readBody(conn, statusCode);
+
+                if (statusCode / 100 == 2) {
+                    return ApiResult.success(new RawResponse(statusCode, body, conn.getHeaderField("Set-Cookie")), statusCode);
+                } else if (statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HttpURLConnection.HTTP_BAD_REQUEST) {
+                    return ApiResult.failure(ApiResult.Status.THROTTLED, statusCode, body);
+                }
+                return ApiResult.failure(ApiResult.Status.HTTP_ERROR, statusCode, body);
+            } catch (SocketTimeoutException e) {
+                return ApiResult.failure(ApiResult.Status.TIMEOUT, 0, e.getMessage());
+            } catch (IOException e) {
+                return ApiResult.failure(aborted ? ApiResult.Status.TIMEOUT : ApiResult.Status.NETWORK_ERROR, 0, e.toString());
+            } finally {
+                if (conn != null) {
+                    conn.disconnect();
+                }
+            }
+        }
+
+        private void abort() {
+            aborted = true;
+            HttpURLConnection conn = connection;
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    private static String readBody(HttpURLConnection conn, int statusCode) throws IOException {
+        InputStream stream = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST ? conn.getErrorStream() : conn.getInputStream();
+        if (stream == null) {
+            return "";
+        }
+        if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+            stream = new GZIPInputStream(stream);
+        }
+        try (InputStream in = stream) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static <T> ApiResult<T> parseFailure(String what, JSONException e) {
+        logger.error("Error parsing {} response", what, e);
+        return ApiResult.failure(ApiResult.Status.PARSE_ERROR, HttpURLConnection.HTTP_OK, e.getMessage());
+    }
+
+    private void logFailure(String what, ApiResult<?> result) {
+        if (result.getStatus() == ApiResult.Status.THROTTLED) {
+            logger.error("Too many requests during {}. Status code: {}", what, result.getStatusCode());
+        } else {
+            logger.error("{} failed: {}", what, result);
+        }
+    }
+
     private void refreshToken() {
         if(last_time_token_refreshed != null &&
                 Duration.between(last_time_token_refreshed, LocalDateTime.now()).getSeconds() <= DEFAULT_ACCESS_TOKEN_LIFETIME) {
             return;
         }
 
-        try {
-            JSONObject requestBody = new JSONObject()
-                    .put("refresh_token", refresh_token);
+        JSONObject requestBody = new JSONObject()
+                .put("refresh_token", refresh_token);
 
-            Response response = Jsoup
-                    .connect(getUrl(REFRESH_ENDPOINT))
-                    .method(Connection.Method.POST)
-                    .requestBody(requestBody.toString())
-                    .headers(getHeaders())
-                    .timeout(timeout)
-                    .ignoreContentType(true)
-                    .execute();
+        ApiResult<RawResponse> result = post(REFRESH_ENDPOINT, getUrl(REFRESH_ENDPOINT), requestBody, false);
 
-            if(response.statusCode() == HttpURLConnection.HTTP_OK) {
-                String responseBody = response.body();
-                JSONObject refreshTokenResponse = new JSONObject(responseBody);
+        if (result.isSuccess() && result.getStatusCode() == HttpURLConnection.HTTP_OK) {
+            try {
+                JSONObject refreshTokenResponse = new JSONObject(result.getValue().body);
 
                 access_token = (String) refreshTokenResponse.get("access_token");
                 refresh_token = (String) refreshTokenResponse.get("refresh_token");
                 last_time_token_refreshed = LocalDateTime.now();
-                cookie = response.header("Set-Cookie");
+                cookie = result.getValue().cookie;
                 logger.info("Success in refreshing token.");
-            } else {
-                if (response.statusCode() == HttpURLConnection.HTTP_BAD_REQUEST) {
-                    logger.error("Too many requests. Status code: {}", response.statusCode());
-                } else {
-                    logger.error("Refresh token failed with status code {}", response.statusCode());
-                }
+            } catch (JSONException e) {
+                logger.error("Error during refreshing token", e);
             }
-        } catch (IOException e) {
-            logger.error("Error during refreshing token", e);
+        } else {
+            logFailure("Refresh token", result);
         }
     }
 
@@ -191,91 +440,67 @@ public class TgtgClient {
         if(alreadyLogged()) {
             refreshToken();
         } else {
-            try {
-                JSONObject requestBody = new JSONObject()
-                        .put("device_type", device_type)
-                        .put("email", email);
-
-                Response response = Jsoup
-                        .connect(getUrl(AUTH_BY_EMAIL_ENDPOINT))
-                        .method(Connection.Method.POST)
-                        .requestBody(requestBody.toString())
-                        .headers(getHeaders())
-                        .timeout(timeout)
-                        .ignoreContentType(true)
-                        .execute();
-
-                if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-                    String responseBody = response.body();
-                    JSONObject firstLoginResponse = new JSONObject(responseBody);
+            JSONObject requestBody = new JSONObject()
+                    .put("device_type", device_type)
+                    .put("email", email);
+
+            ApiResult<RawResponse> result = post(AUTH_BY_EMAIL_ENDPOINT, getUrl(AUTH_BY_EMAIL_ENDPOINT), requestBody, false);
+
+            if (result.isSuccess() && result.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                try {
+                    JSONObject firstLoginResponse = new JSONObject(result.getValue().body);
 
                     if ("TERMS".equals(firstLoginResponse.get("state"))) {
                         logger.error("This email is not linked to a tgtg account. Please sign up with this email first. " + email);
                     } else if ("WAIT".equals(firstLoginResponse.get("state"))) {
                         startPolling(firstLoginResponse.getString("polling_id"));
                     } else {
-                        logger.error("Login failed. " + response.statusCode());
-                    }
-                } else {
-                    if (response.statusCode() == HttpURLConnection.HTTP_BAD_REQUEST) {
-                        logger.error("Too many requests. Status code: {}", response.statusCode());
-                    } else {
-                        logger.error("Login failed with status code {}", response.statusCode());
+                        logger.error("Login failed. " + result.getStatusCode());
                     }
+                } catch (JSONException e) {
+                    logger.error("Error during login", e);
                 }
-            } catch (IOException e) {
-                logger.error("Error during login", e);
+            } else {
+                logFailure("Login", result);
             }
         }
     }
 
     public void startPolling(String polling_id) {
         for (int i = 0; i < MAX_POLLING_TRIES; i++) {
+            JSONObject requestBody = new JSONObject()
+                    .put("device_type", device_type)
+                    .put("email", email)
+                    .put("request_polling_id", polling_id);
+
+            ApiResult<RawResponse> result = post(AUTH_POLLING_ENDPOINT, getUrl(AUTH_POLLING_ENDPOINT), requestBody, false);
+
             try {
-                JSONObject requestBody = new JSONObject()
-                        .put("device_type", device_type)
-                        .put("email", email)
-                        .put("request_polling_id", polling_id);
-
-                Response response = Jsoup
-                        .connect(getUrl(AUTH_POLLING_ENDPOINT))
-                        .method(Connection.Method.POST)
-                        .requestBody(requestBody.toString())
-                        .headers(getHeaders())
-                        .timeout(timeout)
-                        .ignoreContentType(true)
-                        .execute();
-
-                if (response.statusCode() == HttpURLConnection.HTTP_ACCEPTED) {
+                if (result.isSuccess() && result.getStatusCode() == HttpURLConnection.HTTP_ACCEPTED) {
                     logger.info("Check your mailbox on PC to continue... " +
                             "(Opening email on mobile won't work, if you have installed tgtg app.)");
                     Thread.sleep(POLLING_WAIT_TIME * 1000);
-                } else if (response.statusCode() == HttpURLConnection.HTTP_OK) {
+                } else if (result.isSuccess() && result.getStatusCode() == HttpURLConnection.HTTP_OK) {
                     logger.info("Logged in!");
-                    String responseBody = response.body();
-                    JSONObject loginResponse = new JSONObject(responseBody);
+                    JSONObject loginResponse = new JSONObject(result.getValue().body);
 
                     access_token = (String) loginResponse.get("access_token");
                     refresh_token = (String) loginResponse.get("refresh_token");
                     last_time_token_refreshed = LocalDateTime.now();
                     user_id = loginResponse.getJSONObject("startup_data").getJSONObject("user").getString("user_id");
-                    cookie = response.header("Set-Cookie");
+                    cookie = result.getValue().cookie;
                     return;
                 } else {
-                    if (response.statusCode() == HttpURLConnection.HTTP_BAD_REQUEST) {
-                        logger.error("Too many requests. Status code: {}", response.statusCode());
-                    } else {
-                        logger.error("Login failed with status code {}", response.statusCode());
-                    }
+                    logFailure("Login polling", result);
                 }
-            } catch (IOException | InterruptedException e) {
+            } catch (JSONException | InterruptedException e) {
                 logger.error("Error during polling", e);
             }
         }
         logger.error("Max retries ({}) reached. Polling stopped.", MAX_POLLING_TRIES * POLLING_WAIT_TIME);
     }
 
-    public JSONObject getItems(
+    public ApiResult<List<ItemResult>> getItems(
             double latitude,
             double longitude,
             int radius,
@@ -315,145 +540,51 @@ public class TgtgClient {
         data.put("hidden_only", hiddenOnly);
         data.put("we_care_only", weCareOnly);
 
+        ApiResult<RawResponse> result = post(API_ITEM_ENDPOINT, getUrl(API_ITEM_ENDPOINT), new JSONObject(data), true);
+
+        if (!result.isSuccess()) {
+            logFailure("Getting items", result);
+            return result.map(response -> null);
+        }
+
         try {
-            Response response = Jsoup
-                    .connect(getUrl(API_ITEM_ENDPOINT))
-                    .method(Connection.Method.POST)
-                    .requestBody(new JSONObject(data).toString())
-                    .headers(getHeaders())
-                    .timeout(timeout)
-                    .ignoreContentType(true)
-                    .execute();
-
-            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-                logger.info("Success in getting items.");
-                return parseDataItems(new JSONObject(response.body()));
-            } else {
-                logger.error("Getting items error. Status code={}", response.statusCode());
-            }
-        } catch (IOException e) {
-            logger.error("Error during getItems", e);
+            logger.info("Success in getting items.");
+            return result.map(response -> parseDataItems(new JSONObject(response.body)));
+        } catch (JSONException e) {
+            return parseFailure("items", e);
         }
-        return new JSONObject();
     }
 
-    private JSONObject parseDataItems(JSONObject jsonData) {
+    private List<ItemResult> parseDataItems(JSONObject jsonData) {
         JSONArray itemsArray = jsonData.getJSONArray("items");
-        //System.out.println(itemsArray);
-        return new JSONObject()
-                .put("items", StreamSupport.stream(itemsArray.spliterator(), false)
-                        .map(item -> (JSONObject) item)
-                        .map(itemObject -> {
-                            JSONObject current_item = new JSONObject();
-                            current_item.put("item_id", itemObject.getJSONObject("item").getString("item_id"));
-                            current_item.put("store_name", itemObject.getJSONObject("store").getString("store_name"));
-                            current_item.put("cover_picture", itemObject.getJSONObject("item").getJSONObject("cover_picture").getString("current_url"));
-                            current_item.put("logo_picture", itemObject.getJSONObject("item").getJSONObject("logo_picture").getString("current_url"));
-                            current_item.put("category", itemObject.getJSONObject("item").getString("item_category"));
-                            current_item.put("address", itemObject.getJSONObject("store").getJSONObject("store_location").getJSONObject("address").getString("address_line"));
-                            current_item.put("description", itemObject.getJSONObject("item").getString("description"));
-                            current_item.put("items_available", itemObject.getInt("items_available"));
-
-                            if (itemObject.has("item") && itemObject.getJSONObject("item").has("average_overall_rating") && itemObject.getJSONObject("item").getJSONObject("average_overall_rating").has("average_overall_rating")) {
-                                JSONObject averageRatingObject = itemObject.getJSONObject("item").getJSONObject("average_overall_rating");
-                                double averageRating = averageRatingObject.getDouble("average_overall_rating");
-                                double roundedAverageRating = Math.round(averageRating * 100.0) / 100.0;
-                                current_item.put("rating", roundedAverageRating);
-                            } else {
-                                current_item.put("rating", "");
-                            }
-
-                            if (current_item.getInt("items_available") == 0) {
-                                return current_item;
-                            }
-
-                            try {
-                                if (itemObject.has("item") && itemObject.getJSONObject("item").has("item_price")) {
-                                    current_item.put("price_after", formatPrice(itemObject.getJSONObject("item").getJSONObject("item_price")));
-                                } else {
-                                    current_item.put("price_after", "");
-                                    logger.error("Lack of price after.");
-                                }
-
-                                if (itemObject.has("item") && itemObject.getJSONObject("item").has("item_value")) {
-                                    current_item.put("price_before", formatPrice(itemObject.getJSONObject("item").getJSONObject("item_value")));
-                                } else {
-                                    current_item.put("price_before", "");
-                                    logger.error("Lack of price before");
-                                }
-                            } catch (Exception e) {
-                                current_item.put("price_after", "");
-                                current_item.put("price_before", "");
-                                logger.error("Error during formatting prices");
-                            }
-
-                            try {
-                                if (itemObject.has("pickup_interval")) {
-                                    LocalDateTime localPickupStart = Instant.parse(itemObject.getJSONObject("pickup_interval").getString("start")).atZone(ZoneId.of("UTC")).toLocalDateTime();
-                                    LocalDateTime localPickupEnd = Instant.parse(itemObject.getJSONObject("pickup_interval").getString("end")).atZone(ZoneId.of("UTC")).toLocalDateTime();
-                                    current_item.put("pickup_start", formatPickup(localPickupStart));
-                                    current_item.put("pickup_end", formatPickup(localPickupEnd));
-                                } else {
-                                    current_item.put("pickup_start", "");
-                                    current_item.put("pickup_end", "");
-                                    logger.error("Lack of pickup interval");
-                                }
-                            } catch (Exception e) {
-                                current_item.put("pickup_start", "");
-                                current_item.put("pickup_end", "");
-                                logger.error("Error during formatting pickup interval");
-                            }
-
-                            return current_item;
-                        })
-                        .collect(Collectors.toList()));
-    }
-
-    private String formatPrice(JSONObject price) {
-        int minorUnits = price.getInt("minor_units");
-        int decimals = price.getInt("decimals");
-        String code = price.getString("code");
-
-        double formattedPrice = minorUnits / Math.pow(10, decimals);
-
-        return String.format(Locale.ENGLISH, "%.2f%s", formattedPrice, code);
+        return StreamSupport.stream(itemsArray.spliterator(), false)
+                .map(item -> new ItemResult((JSONObject) item))
+                .collect(Collectors.toList());
     }
 
-    private String formatPickup(LocalDateTime pickupDateTime) {
-        return pickupDateTime.format(DateTimeFormatter.ofPattern("EEE dd MMM HH:mm", Locale.ENGLISH));
-    }
-
-    public JSONObject getItem(String item_id) {
+    public ApiResult<JSONObject> getItem(String item_id) {
        login();
 
         JSONObject requestBody = new JSONObject()
                 .put("user_id", user_id)
                 .put("origin", JSONObject.NULL);
 
-        try {
-            Response response = Jsoup
-                    .connect(getUrl(API_ITEM_ENDPOINT, item_id))
-                    .method(Connection.Method.POST)
-                    .requestBody(requestBody.toString())
-                    .headers(getHeaders())
-                    .timeout(timeout)
-                    .ignoreContentType(true)
-                    .execute();
-
-            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-                logger.info("Success in getting item id " + item_id);
-                return (new JSONObject(response.body())); // ToDo parse data
-            } else {
-                logger.error("Getting item id {} error. Status code={}", item_id, response.statusCode());
-            }
-        } catch (IOException e) {
-            logger.error("Error during getItem. ID " + item_id, e);
+        ApiResult<RawResponse> result = post(API_ITEM_ENDPOINT + "{item_id}", getUrl(API_ITEM_ENDPOINT, item_id), requestBody, true);
+
+        if (!result.isSuccess()) {
+            logFailure("Getting item id " + item_id, result);
+            return result.map(response -> null);
         }
-        return new JSONObject();
 
+        try {
+            logger.info("Success in getting item id " + item_id);
+            return result.map(response -> new JSONObject(response.body)); // ToDo parse data
+        } catch (JSONException e) {
+            return parseFailure("item", e);
+        }
     }
 
-    public JSONObject getFavorites(){
+    public ApiResult<JSONObject> getFavorites(){
         double latitude = 0;
         double longitude = 0;
         int radius = 21;
@@ -473,51 +604,35 @@ public class TgtgClient {
         data.put("paging", Map.of("page", page, "size", pageSize));
         data.put("bucket", Map.of("filler_type", "Favorites"));
 
+        ApiResult<RawResponse> result = post(API_BUCKET_ENDPOINT, getUrl(API_BUCKET_ENDPOINT), new JSONObject(data), true);
+
+        if (!result.isSuccess()) {
+            logFailure("Getting favorites", result);
+            return result.map(response -> null);
+        }
+
         try {
-            Response response = Jsoup
-                    .connect(getUrl(API_BUCKET_ENDPOINT))
-                    .method(Connection.Method.POST)
-                    .requestBody(new JSONObject(data).toString())
-                    .headers(getHeaders())
-                    .timeout(timeout)
-                    .ignoreContentType(true)
-                    .execute();
-
-            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-                logger.info("Success in getting favorites.");
-                return (new JSONObject(response.body())); // ToDo parse data
-            } else {
-                logger.error("Getting favorites error. Status code={}", response.statusCode());
-            }
-        } catch (IOException e) {
-            logger.error("Error during getFavorites", e);
+            logger.info("Success in getting favorites.");
+            return result.map(response -> new JSONObject(response.body)); // ToDo parse data
+        } catch (JSONException e) {
+            return parseFailure("favorites", e);
         }
-        return new JSONObject();
     }
 
-    public void setFavorite(String item_id, boolean is_favorite) {
+    public ApiResult<Void> setFavorite(String item_id, boolean is_favorite) {
         login();
 
         JSONObject requestBody = new JSONObject()
                 .put("is_favorite", is_favorite);
 
-        try {
-            Response response = Jsoup
-                    .connect(getUrl(API_ITEM_ENDPOINT, item_id, "/setFavorite"))
-                    .method(Connection.Method.POST)
-                    .requestBody(requestBody.toString())
-                    .headers(getHeaders())
-                    .timeout(timeout)
-                    .ignoreContentType(true)
-                    .execute();
-
-            if (response.statusCode() == HttpURLConnection.HTTP_OK){
-                logger.info("Success in setting favorite item id " + item_id);
-            } else {
-                logger.error("Setting favorite error. Status code={}", response.statusCode());
-            }
-        } catch (IOException e) {
-            logger.error("Error during setFavorite", e);
+        ApiResult<RawResponse> result = post(API_ITEM_ENDPOINT + "{item_id}/setFavorite",
+                getUrl(API_ITEM_ENDPOINT, item_id, "/setFavorite"), requestBody, false);
+
+        if (result.isSuccess()) {
+            logger.info("Success in setting favorite item id " + item_id);
+        } else {
+            logFailure("Setting favorite", result);
         }
+        return result.map(response -> null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.jsoup.Connection;
+import org.jsoup.Connection.Response;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.util.List;
+
+public class WebhookSink implements NotificationSink {
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private final String url;
+    private final int timeout;
+
+    public WebhookSink(String url, int timeout) {
+        this.url = url;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String getName() {
+        return "webhook:" + url;
+    }
+
+    @Override
+    public void send(List<ItemEvent> events) throws IOException {
+        JSONArray items = new JSONArray();
+        for (ItemEvent event : events) {
+            items.put(event.getItem());
+        }
+
+        Response response = Jsoup
+                .connect(url)
+                .method(Connection.Method.POST)
+                .header("content-type", "application/json; charset=utf-8")
+                .requestBody(new JSONObject().put("items", items).toString())
+                .timeout(timeout)
+                .ignoreContentType(true)
+                .ignoreHttpErrors(true)
+                .execute();
+
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook " + url + " responded with status code " + response.statusCode());
+        }
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+}